@@ -1,9 +1,17 @@
 import queue.JobQueue;
 import worker.Producer;
 import worker.Consumer;
+import worker.TenantStats;
+import worker.TenantWindow;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Entry point for the Concurrent Job Queue simulation.
@@ -11,7 +19,7 @@ import java.util.List;
  */
 public class Main {
 
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws InterruptedException, IOException {
 
         // =====================
         // DEFAULT CONFIGURATION
@@ -23,6 +31,11 @@ public class Main {
         boolean verbose = true;
         int logEvery = 1;
         boolean noSleep = false;
+        int tenants = 0;          // 0 => single shared FIFO, >0 => weighted fair queuing across tenants
+        String weightsArg = null; // e.g. "3,1,1" => tenant 1 weight 3, tenants 2-3 weight 1
+        int tenantQuota = 0;      // 0 => no per-tenant cap beyond capacity
+        String spillDir = null;   // set => hybrid mode: capacity is the in-memory window, overflow spills here
+        int segmentJobs = 1024;   // jobs per spill segment file
 
         // =====================
         // ARGUMENT PARSING
@@ -51,6 +64,21 @@ public class Main {
                 case "--noSleep":
                     noSleep = true;
                     break;
+                case "--tenants":
+                    tenants = Integer.parseInt(args[++i]);
+                    break;
+                case "--weights":
+                    weightsArg = args[++i];
+                    break;
+                case "--tenantQuota":
+                    tenantQuota = Integer.parseInt(args[++i]);
+                    break;
+                case "--spillDir":
+                    spillDir = args[++i];
+                    break;
+                case "--segmentJobs":
+                    segmentJobs = Integer.parseInt(args[++i]);
+                    break;
             }
         }
 
@@ -65,14 +93,49 @@ public class Main {
                 ", jobsPerProducer=" + jobsPerProducer +
                 ", verbose=" + verbose +
                 ", logEvery=" + logEvery +
-                ", noSleep=" + noSleep
+                ", noSleep=" + noSleep +
+                ", tenants=" + tenants +
+                ", weights=" + weightsArg +
+                ", tenantQuota=" + tenantQuota +
+                ", spillDir=" + spillDir +
+                ", segmentJobs=" + segmentJobs
         );
 
+        if (tenants > 0 && spillDir != null) {
+            throw new IllegalArgumentException("--spillDir cannot be combined with --tenants");
+        }
+
         // =====================
         // SHARED QUEUE
         // =====================
-        JobQueue queue = new JobQueue(capacity);
+        JobQueue queue;
+        if (tenants > 0) {
+            Map<Integer, Integer> weights = new HashMap<>();
+            if (weightsArg != null) {
+                String[] parts = weightsArg.split(",");
+                for (int t = 0; t < parts.length; t++) {
+                    weights.put(t + 1, Integer.parseInt(parts[t].trim()));
+                }
+            }
+            queue = new JobQueue(capacity, weights, tenantQuota > 0 ? tenantQuota : capacity);
+        } else if (spillDir != null) {
+            Path dir = Paths.get(spillDir);
+            queue = new JobQueue(capacity, dir, segmentJobs);
+        } else {
+            queue = new JobQueue(capacity);
+        }
+
+        // producers are spread round-robin over tenants 1..N, so tenants may own different job counts
+        TenantWindow tenantWindow = null;
+        if (tenants > 0) {
+            Map<Integer, Integer> expectedJobs = new HashMap<>();
+            for (int i = 0; i < producers; i++) {
+                expectedJobs.merge((i % tenants) + 1, jobsPerProducer, Integer::sum);
+            }
+            tenantWindow = new TenantWindow(expectedJobs);
+        }
 
+        List<Producer> producerWorkers = new ArrayList<>();
         List<Thread> producerThreads = new ArrayList<>();
         List<Consumer> consumerWorkers = new ArrayList<>();
         List<Thread> consumerThreads = new ArrayList<>();
@@ -81,7 +144,7 @@ public class Main {
         // CREATE CONSUMERS
         // =====================
         for (int i = 0; i < consumers; i++) {
-            Consumer consumer = new Consumer(queue, i + 1, verbose, logEvery);
+            Consumer consumer = new Consumer(queue, i + 1, verbose, logEvery, false, tenantWindow);
             Thread t = new Thread(consumer, "Consumer-" + (i + 1));
             consumerWorkers.add(consumer);
             consumerThreads.add(t);
@@ -102,6 +165,8 @@ public class Main {
         // =====================
         for (int i = 0; i < producers; i++) {
             long seed = System.nanoTime() + i;
+            // producers are spread round-robin over tenants 1..N
+            int tenantId = (tenants > 0) ? (i % tenants) + 1 : 0;
             Producer producer = new Producer(
                     queue,
                     i + 1,
@@ -109,9 +174,11 @@ public class Main {
                     seed,
                     verbose,
                     logEvery,
-                    noSleep
+                    noSleep,
+                    tenantId
             );
             Thread t = new Thread(producer, "Producer-" + (i + 1));
+            producerWorkers.add(producer);
             producerThreads.add(t);
             t.start();
         }
@@ -135,6 +202,9 @@ public class Main {
 
         long endNs = System.nanoTime();
 
+        // release spill files / read-ahead thread (also after a failure stopped workers early)
+        queue.close();
+
         // =====================
         // METRICS (THROUGHPUT)
         // =====================
@@ -192,6 +262,23 @@ public class Main {
         System.out.println("Total jobs processed        : " + totalProcessed);
         System.out.printf("Elapsed time (s)            : %.3f%n", elapsedSeconds);
         System.out.printf("Throughput (jobs/sec)       : %.2f%n", throughput);
+        if (queue.isSpillEnabled()) {
+            System.out.println("Jobs spilled to disk        : " + queue.getSpilledTotal());
+        }
+
+        // Workers stop early if the queue's storage fails (e.g. disk spill), so totals are short
+        int failedWorkers = 0;
+        for (Producer p : producerWorkers) {
+            if (p.getFailure() != null) failedWorkers++;
+        }
+        for (Consumer c : consumerWorkers) {
+            if (c.getFailure() != null) failedWorkers++;
+        }
+        if (failedWorkers > 0) {
+            int expected = producers * jobsPerProducer;
+            System.out.println("Failed workers              : " + failedWorkers);
+            System.out.println("Jobs lost (not processed)   : " + (expected - totalProcessed) + " of " + expected);
+        }
 
         System.out.println("\n=== Fairness Report ===");
         for (Consumer c : consumerWorkers) {
@@ -210,6 +297,49 @@ public class Main {
                 Double.isInfinite(imbalanceRatio) ? "INF (min=0)" : String.format("%.2f", imbalanceRatio));
         System.out.println("Starved consumers (0 jobs)  : " + starved);
         System.out.println("Fairness label              : " + fairnessLabel);
+
+        // =====================
+        // TENANT REPORT
+        // =====================
+        if (tenants > 0) {
+            Map<Integer, TenantStats> byTenant = new TreeMap<>();
+            for (Consumer c : consumerWorkers) {
+                for (Map.Entry<Integer, TenantStats> e : c.getTenantStats().entrySet()) {
+                    byTenant.computeIfAbsent(e.getKey(), t -> new TenantStats()).merge(e.getValue());
+                }
+            }
+
+            // Shared window: from start until the first tenant finishes. Inside it every tenant still
+            // has jobs to submit, so throughput reflects the scheduler rather than workload size.
+            // (Falls back to the whole run if no tenant finished, e.g. after a failure.)
+            boolean windowClosed = tenantWindow.isClosed();
+            long windowEndNs = windowClosed ? tenantWindow.getEndNs() : endNs;
+            double windowSeconds = (windowEndNs - startNs) / 1_000_000_000.0;
+
+            System.out.println("\n=== Tenant Report ===");
+            System.out.printf("Shared window (s)           : %.3f%n", windowSeconds);
+            // Jain's index over weight-normalized throughput inside the shared window:
+            // 1.0 => each tenant got exactly its weighted share while all were competing
+            double sum = 0.0;
+            double sumSq = 0.0;
+            for (Map.Entry<Integer, TenantStats> e : byTenant.entrySet()) {
+                int tenantId = e.getKey();
+                TenantStats st = e.getValue();
+                int weight = queue.getTenantWeight(tenantId);
+                int inWindow = windowClosed ? tenantWindow.getCompletedAtEnd(tenantId) : st.getProcessed();
+                double tenantThroughput = (windowSeconds > 0) ? (inWindow / windowSeconds) : 0.0;
+                System.out.printf(
+                        "Tenant %d (weight %d): %d jobs, %.2f jobs/sec in window, latency mean %.2f ms, max %.2f ms%n",
+                        tenantId, weight, st.getProcessed(), tenantThroughput,
+                        st.getMeanLatencyMs(), st.getMaxLatencyMs());
+
+                double normalized = tenantThroughput / weight;
+                sum += normalized;
+                sumSq += normalized * normalized;
+            }
+            double tenantJain = (sumSq > 0) ? (sum * sum) / (byTenant.size() * sumSq) : 0.0;
+            System.out.printf("Jain's index (tenants)      : %.4f%n", tenantJain);
+        }
     }
 }
 
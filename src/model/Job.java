@@ -1,12 +1,26 @@
 package model; // declares this file belongs to the "model" package 
 
 public class Job { // defines a class named Job
+    public static final int DEFAULT_TENANT = 0; // tenant used when no tenant is given
+
     private final int id; // unique identifier for the job (immutable because final)
     private final int durationMs; // simulated processing time in milliseconds (immutable)
+    private final int tenantId; // tenant (producer group) that owns the job, used for fair queuing
+    private final long createdAtNs; // System.nanoTime() at creation, used to measure latency
+
+    public Job(int id, int durationMs) { // constructor used to create a Job for the default tenant
+        this(id, durationMs, DEFAULT_TENANT); // delegate with the default tenant
+    }
+
+    public Job(int id, int durationMs, int tenantId) { // constructor used to create a Job for a tenant
+        this(id, durationMs, tenantId, System.nanoTime()); // stamp creation time now
+    }
 
-    public Job(int id, int durationMs) { // constructor used to create a Job
+    public Job(int id, int durationMs, int tenantId, long createdAtNs) { // full constructor (e.g. when restoring a job)
         this.id = id; // store the provided id in the object field
         this.durationMs = durationMs; // store the provided duration in the object field
+        this.tenantId = tenantId; // store the owning tenant
+        this.createdAtNs = createdAtNs; // store the creation timestamp
     }
 
     public int getId() { // getter method to access id
@@ -17,8 +31,16 @@ public class Job { // defines a class named Job
         return durationMs; // return the job processing time in ms
     }
 
+    public int getTenantId() { // getter method to access tenant
+        return tenantId; // return the owning tenant id
+    }
+
+    public long getCreatedAtNs() { // getter method to access creation time
+        return createdAtNs; // return the creation timestamp in nanoseconds
+    }
+
     @Override
     public String toString() { // controls how the job prints in logs
-        return "Job{id=" + id + ", durationMs=" + durationMs + "}"; // formatted string for debug output
+        return "Job{id=" + id + ", tenant=" + tenantId + ", durationMs=" + durationMs + "}"; // formatted string for debug output
     }
 }
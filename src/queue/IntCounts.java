@@ -0,0 +1,100 @@
+package queue;
+
+/**
+ * Multiset of int keys in a primitive open-addressing table (linear probing).
+ * Costs 8 bytes per slot with at most half the slots in use, i.e. 8-16 bytes per distinct
+ * key, instead of a boxed Integer plus a HashMap node. Not thread-safe: JobQueue guards it.
+ */
+final class IntCounts {
+
+    private static final int INITIAL_CAPACITY = 16; // power of two
+
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY]; // 0 => empty slot
+    private int distinct = 0;
+
+    void increment(int key) {
+        if ((distinct + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = find(key);
+        if (counts[i] == 0) {
+            keys[i] = key;
+            distinct++;
+        }
+        counts[i]++;
+    }
+
+    /** Removes one occurrence of key; returns false if there was none. */
+    boolean decrement(int key) {
+        int i = find(key);
+        if (counts[i] == 0) {
+            return false;
+        }
+        if (--counts[i] == 0) {
+            distinct--;
+            if (distinct == 0 && keys.length > INITIAL_CAPACITY) {
+                // backlog drained: give the memory back
+                keys = new int[INITIAL_CAPACITY];
+                counts = new int[INITIAL_CAPACITY];
+            } else {
+                closeGap(i);
+            }
+        }
+        return true;
+    }
+
+    void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        distinct = 0;
+    }
+
+    // slot holding key, or the empty slot where it would go
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (counts[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    // backward-shift deletion: pull later entries of the probe run into the hole
+    private void closeGap(int hole) {
+        int mask = keys.length - 1;
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (counts[i] == 0) {
+                return;
+            }
+            int home = hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                counts[hole] = counts[i];
+                counts[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[newCapacity];
+        counts = new int[newCapacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int j = find(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                counts[j] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9; // spread sequential ids across the table
+        return h ^ (h >>> 16);
+    }
+}
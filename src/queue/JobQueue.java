@@ -2,39 +2,147 @@ package queue;
 
 import model.Job;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class JobQueue {
 
-    private final Deque<Job> queue = new ArrayDeque<>();
+    // Compact a lane once it holds at least this many tombstones AND more tombstones than live jobs.
+    // Rebuilding is O(n) but only happens after n/2 O(1) cancels, so cancel stays amortized O(1).
+    private static final int COMPACT_MIN_TOMBSTONES = 64;
+
+    private final Lane queue = new Lane(null); // single-FIFO mode
     private final int capacity;
 
+    // Multi-tenant mode: one FIFO lane per tenant, served by deficit round-robin (DRR).
+    // Each job costs one unit of credit; a tenant's quantum per round is its weight.
+    private final boolean multiTenant;
+    private final Map<Integer, Integer> tenantWeights;
+    private final int tenantQuota; // max live jobs a single tenant may hold in the queue
+    private final Map<Integer, Lane> tenantLanes = new HashMap<>();
+    private final Deque<Integer> activeTenants = new ArrayDeque<>(); // tenants in the current round, in order
+
+    // Job id -> queued slot, so cancel() can tombstone a job without searching the deque
+    private final Map<Integer, Slot> index = new HashMap<>();
+    private int size = 0; // live (non-cancelled) jobs across all lanes
+
+    // Hybrid mode: capacity is the hot in-memory window; overflow goes to segment files on disk.
+    // Once anything is spilled, new jobs also spill until the disk backlog drains (keeps FIFO).
+    private final SegmentSpill spill;
+    private long spilled = 0;      // jobs on disk or held by the read-ahead thread, not yet in the window
+    private long spilledTotal = 0; // jobs ever written to disk
+    // Per-occurrence id counts, so duplicate ids are never mistaken for cancellations:
+    // spilledIds = live jobs on disk, spillCancels = jobs cancelled while on disk, not yet read back
+    private final IntCounts spilledIds = new IntCounts();
+    private final IntCounts spillCancels = new IntCounts();
+    private Thread readAhead;
+    private IOException spillFailure;
+
     // "true" => fair lock (threads acquire lock roughly FIFO under contention)
     private final ReentrantLock lock = new ReentrantLock(true);
-    private final Condition notFull = lock.newCondition();
+    private final Condition notFull = lock.newCondition(); // total capacity; each tenant lane has its own quota condition
     private final Condition notEmpty = lock.newCondition();
+    private final Condition spillReady = lock.newCondition(); // read-ahead thread waits here
 
     private boolean shutdown = false;
+    private boolean closed = false;
 
     public JobQueue(int capacity) {
         this.capacity = capacity;
+        this.multiTenant = false;
+        this.tenantWeights = Map.of();
+        this.tenantQuota = capacity;
+        this.spill = null;
+    }
+
+    /**
+     * Hybrid memory/disk queue. Keeps up to {@code capacity} jobs in memory and spills the
+     * overflow to append-only segment files under {@code spillDir}, so put() never blocks.
+     * A background thread reads segments back ahead of consumers, preserving FIFO order.
+     *
+     * Jobs on disk are stored as 20-byte records, but each still costs about 8-17 bytes of
+     * heap for its id in a primitive hash table (needed for O(1) cancel; ~16.7 measured over
+     * 2M puts), compared with over 100 bytes for a job held in the in-memory window.
+     *
+     * @param capacity    size of the hot in-memory window
+     * @param spillDir    directory for segment files (created if missing)
+     * @param segmentJobs jobs per segment file
+     */
+    public JobQueue(int capacity, Path spillDir, int segmentJobs) throws IOException {
+        this.capacity = capacity;
+        this.multiTenant = false;
+        this.tenantWeights = Map.of();
+        this.tenantQuota = capacity;
+        this.spill = new SegmentSpill(spillDir, segmentJobs);
+    }
+
+    /**
+     * Multi-tenant queue. Jobs are grouped by {@link Job#getTenantId()} and served by
+     * weighted deficit round-robin, so a chatty producer cannot starve the other tenants.
+     *
+     * @param capacity      total number of jobs the queue may hold
+     * @param tenantWeights weight per tenant (tenants not listed get weight 1)
+     * @param tenantQuota   max jobs a single tenant may hold at once
+     */
+    public JobQueue(int capacity, Map<Integer, Integer> tenantWeights, int tenantQuota) {
+        if (tenantQuota <= 0) {
+            throw new IllegalArgumentException("tenantQuota must be positive: " + tenantQuota);
+        }
+        for (Map.Entry<Integer, Integer> e : tenantWeights.entrySet()) {
+            if (e.getValue() <= 0) {
+                throw new IllegalArgumentException("weight for tenant " + e.getKey() + " must be positive: " + e.getValue());
+            }
+        }
+        this.capacity = capacity;
+        this.multiTenant = true;
+        this.tenantWeights = new HashMap<>(tenantWeights);
+        this.tenantQuota = tenantQuota;
+        this.spill = null;
     }
 
     public void put(Job job) throws InterruptedException {
         lock.lockInterruptibly();
         try {
-            while (queue.size() >= capacity && !shutdown) {
-                notFull.await();
+            while (!shutdown && spill == null) { // hybrid mode spills instead of blocking
+                Lane lane = multiTenant ? tenantLanes.get(job.getTenantId()) : null;
+                boolean quotaFull = lane != null && lane.live >= tenantQuota;
+                if (size >= capacity) {
+                    if (lane != null && !quotaFull && lock.hasWaiters(lane.quotaFree)) {
+                        lane.quotaFree.signal(); // we cannot use the quota wakeup; pass it on
+                    }
+                    notFull.await();
+                } else if (quotaFull) {
+                    if (lock.hasWaiters(notFull)) {
+                        notFull.signal(); // we cannot use the capacity wakeup; pass it on
+                    }
+                    lane.quotaFree.await();
+                } else {
+                    break;
+                }
             }
 
             if (shutdown) {
                 return; // ignore jobs after shutdown (matches your current semantics)
             }
 
-            queue.addLast(job); // FIFO
+            if (spillFailure != null) {
+                throw new UncheckedIOException("job spill failed", spillFailure);
+            }
+
+            if (spill != null && (spilled > 0 || size >= capacity)) {
+                spillToDisk(job);
+                return;
+            }
+
+            enqueue(job);
             notEmpty.signal();  // wake ONE waiting consumer
         } finally {
             lock.unlock();
@@ -44,32 +152,408 @@ public class JobQueue {
     public Job take() throws InterruptedException {
         lock.lockInterruptibly();
         try {
-            while (queue.isEmpty() && !shutdown) {
+            while (size == 0 && (!shutdown || spilled > 0) && spillFailure == null) {
                 notEmpty.await();
             }
 
-            if (queue.isEmpty() && shutdown) {
-                return null;
+            if (size == 0 && spillFailure != null) {
+                // the disk backlog is lost; fail instead of reporting a clean end of queue
+                throw new UncheckedIOException("job spill failed", spillFailure);
+            }
+
+            if (size == 0) {
+                return null; // shutdown and nothing left in memory or on disk
             }
 
-            Job job = queue.removeFirst();
-            notFull.signal(); // wake ONE waiting producer
+            Job job = dequeue();
+            if (spilled > 0) {
+                spillReady.signal(); // window shrank: read-ahead may want the next segment
+            }
+            signalFreed(job.getTenantId());
             return job;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Withdraws a queued job in O(1): the job is tombstoned in place and skipped by take().
+     * Job ids are expected to be unique while queued.
+     *
+     * In hybrid mode, a job still on disk is cancelled by recording its id; the read-ahead
+     * thread drops the next occurrence of that id when the segment is read back.
+     *
+     * @return true if the job was queued and is now cancelled, false if it was unknown or already taken
+     */
+    public boolean cancel(int jobId) {
+        lock.lock();
+        try {
+            Slot slot = index.remove(jobId);
+            if (slot == null) {
+                if (!spilledIds.decrement(jobId)) {
+                    return false;
+                }
+                spillCancels.increment(jobId);
+                return true;
+            }
+            slot.cancelled = true;
+            size--;
+
+            Lane lane = multiTenant ? tenantLanes.get(slot.job.getTenantId()) : queue;
+            lane.live--;
+            lane.tombstones++;
+            if (lane.live == 0) {
+                lane.clear(); // nothing left worth keeping
+            } else if (lane.tombstones >= COMPACT_MIN_TOMBSTONES && lane.tombstones > lane.live) {
+                lane.compact();
+            }
+
+            signalFreed(slot.job.getTenantId());
+            if (spilled > 0) {
+                spillReady.signal(); // window shrank: read-ahead may want the next segment
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void shutdown() {
         lock.lock();
         try {
             shutdown = true;
             // wake everyone so they can exit or stop waiting
-            notEmpty.signalAll();
-            notFull.signalAll();
+            signalAllWaiters();
         } finally {
             lock.unlock();
         }
     }
-}
 
+    /**
+     * Shuts the queue down and releases its disk resources. Jobs still on disk are discarded
+     * and their segment files deleted; jobs in the in-memory window can still be taken.
+     * Waits for the read-ahead thread to exit, so no segment file outlives this call.
+     */
+    public void close() throws InterruptedException {
+        Thread reader;
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                shutdown = true;
+                if (spill != null) {
+                    discardSpill();
+                }
+                signalAllWaiters();
+            }
+            reader = readAhead;
+        } finally {
+            lock.unlock();
+        }
+        if (reader != null) {
+            reader.join();
+        }
+    }
+
+    public boolean isMultiTenant() {
+        return multiTenant;
+    }
+
+    public int getTenantWeight(int tenantId) {
+        return tenantWeights.getOrDefault(tenantId, 1);
+    }
+
+    public boolean isSpillEnabled() {
+        return spill != null;
+    }
+
+    public long getSpilledTotal() {
+        lock.lock();
+        try {
+            return spilledTotal;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // test hook: this queue's read-ahead thread, or null if nothing was ever spilled
+    Thread readAheadThread() {
+        lock.lock();
+        try {
+            return readAhead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =====================
+    // DISK SPILL
+    // =====================
+
+    // caller holds lock
+    private void spillToDisk(Job job) {
+        boolean sealed;
+        try {
+            sealed = spill.append(job);
+        } catch (IOException e) {
+            failSpill(e);
+            throw new UncheckedIOException("failed to spill " + job, e);
+        }
+        spilled++;
+        spilledTotal++;
+        spilledIds.increment(job.getId());
+        if (readAhead == null) {
+            readAhead = new Thread(this::runReadAhead, "JobQueue-readahead");
+            readAhead.setDaemon(true);
+            readAhead.start();
+        }
+        if (sealed || spilled == 1) {
+            spillReady.signal(); // a segment to close, or a new backlog to watch
+        }
+    }
+
+    /**
+     * Moves spilled jobs back into the in-memory window. All segment I/O (closing newly sealed
+     * segments, then reading the next one) happens outside the lock, and the next segment is
+     * read while consumers are still draining the window.
+     */
+    private void runReadAhead() {
+        List<Job> pending = List.of(); // jobs read from disk, not yet moved into the window
+        int next = 0;
+        try {
+            while (true) {
+                List<SegmentSpill.Segment> toClose;
+                SegmentSpill.Segment toRead = null;
+                lock.lock();
+                try {
+                    if (closed || spillFailure != null) {
+                        return; // the backlog was discarded; so is anything read ahead
+                    }
+                    while (next < pending.size() && size < capacity) {
+                        Job job = pending.get(next++);
+                        spilled--;
+                        if (spillCancels.decrement(job.getId())) {
+                            continue; // cancelled while on disk
+                        }
+                        spilledIds.decrement(job.getId());
+                        enqueue(job);
+                        notEmpty.signal();
+                    }
+                    if (spilled == 0) {
+                        notEmpty.signalAll(); // let takers observe an empty, shut-down queue
+                    }
+
+                    while (true) {
+                        if (closed || spillFailure != null) {
+                            return;
+                        }
+                        toClose = spill.drainUnclosed();
+                        if (!toClose.isEmpty()) {
+                            break;
+                        }
+                        if (next < pending.size()) {
+                            if (size < capacity) {
+                                break; // room for more of the current segment
+                            }
+                        } else {
+                            toRead = nextSegment();
+                            if (toRead != null) {
+                                break;
+                            }
+                            if (shutdown && spilled == 0) {
+                                return;
+                            }
+                        }
+                        spillReady.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                for (SegmentSpill.Segment segment : toClose) {
+                    segment.close(); // flush and free the write buffer as soon as it is sealed
+                }
+                if (toRead != null) {
+                    pending = SegmentSpill.read(toRead);
+                    next = 0;
+                }
+            }
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                if (!closed) {
+                    failSpill(e);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marks the queue failed: put() throws from now on, and take() throws once the in-memory
+     * window is drained, since the jobs left on disk can no longer be delivered in order.
+     * The remaining segments are released right away (a little I/O under the lock, but only
+     * on this failure path). Caller holds lock.
+     */
+    private void failSpill(IOException e) {
+        if (spillFailure == null) {
+            spillFailure = e;
+            discardSpill();
+        }
+        notEmpty.signalAll();
+        spillReady.signalAll();
+    }
+
+    // caller holds lock; the read-ahead thread cleans up whatever segment it is holding
+    private void discardSpill() {
+        spill.discardAll();
+        spilled = 0;
+        spilledIds.clear();
+        spillCancels.clear();
+    }
+
+    // caller holds lock; seals a partial segment early once the window is half drained
+    private SegmentSpill.Segment nextSegment() {
+        SegmentSpill.Segment segment = spill.pollSealed();
+        if (segment == null && spill.hasOpenRecords() && size <= capacity / 2) {
+            spill.seal();
+            segment = spill.pollSealed();
+        }
+        return segment;
+    }
+
+    // =====================
+    // STORAGE (caller holds lock)
+    // =====================
+
+    // one job of this tenant left the queue: wake ONE producer for the freed capacity slot and
+    // ONE of the tenant's own producers for the freed quota slot. One signal per freed slot (not
+    // just when the lane crosses the quota) so no waiter is stranded while its tenant has room.
+    private void signalFreed(int tenantId) {
+        notFull.signal();
+        if (multiTenant) {
+            tenantLanes.get(tenantId).quotaFree.signal();
+        }
+    }
+
+    private void signalAllWaiters() {
+        notEmpty.signalAll();
+        notFull.signalAll();
+        spillReady.signalAll();
+        for (Lane lane : tenantLanes.values()) {
+            lane.quotaFree.signalAll();
+        }
+    }
+
+    private void enqueue(Job job) {
+        Slot slot = new Slot(job);
+        index.put(job.getId(), slot);
+        size++;
+
+        if (!multiTenant) {
+            queue.add(slot); // FIFO
+            return;
+        }
+        int tenant = job.getTenantId();
+        Lane lane = tenantLanes.computeIfAbsent(tenant, t -> new Lane(lock.newCondition()));
+        if (!lane.inRound) {
+            lane.inRound = true;
+            activeTenants.addLast(tenant); // joins the end of the current round
+        }
+        lane.add(slot); // FIFO within a tenant
+    }
+
+    private Job dequeue() {
+        if (!multiTenant) {
+            return removeLive(queue);
+        }
+        while (true) {
+            int tenant = activeTenants.peekFirst();
+            Lane lane = tenantLanes.get(tenant);
+            if (lane.live == 0) {
+                // emptied by cancel(); leave the round lazily, without banking credit
+                activeTenants.removeFirst();
+                lane.inRound = false;
+                lane.deficit = 0;
+                continue;
+            }
+
+            if (lane.deficit == 0) {
+                lane.deficit = getTenantWeight(tenant); // new turn: grant this tenant's quantum
+            }
+            Job job = removeLive(lane);
+            lane.deficit--;
+
+            if (lane.live == 0) {
+                // idle tenants do not bank credit
+                activeTenants.removeFirst();
+                lane.inRound = false;
+                lane.deficit = 0;
+            } else if (lane.deficit == 0) {
+                // quantum used up: move to the back of the round
+                activeTenants.addLast(activeTenants.removeFirst());
+            }
+            return job;
+        }
+    }
+
+    private Job removeLive(Lane lane) {
+        Slot slot = lane.pollLive();
+        index.remove(slot.job.getId(), slot);
+        size--;
+        return slot.job;
+    }
+
+    /** A queued job; cancelled slots stay in their lane as tombstones until skipped or compacted. */
+    private static final class Slot {
+        final Job job;
+        boolean cancelled = false;
+
+        Slot(Job job) {
+            this.job = job;
+        }
+    }
+
+    /** FIFO of slots plus the counters needed for tombstoning and DRR. */
+    private static final class Lane {
+        final Deque<Slot> slots = new ArrayDeque<>();
+        int live = 0;
+        int tombstones = 0;
+        int deficit = 0;        // DRR credit left in this tenant's current turn
+        boolean inRound = false; // whether the tenant is in activeTenants
+        final Condition quotaFree; // producers of this tenant waiting for quota (null in single-FIFO mode)
+
+        Lane(Condition quotaFree) {
+            this.quotaFree = quotaFree;
+        }
+
+        void add(Slot slot) {
+            slots.addLast(slot);
+            live++;
+        }
+
+        // caller guarantees live > 0
+        Slot pollLive() {
+            Slot slot = slots.removeFirst();
+            while (slot.cancelled) {
+                tombstones--;
+                slot = slots.removeFirst();
+            }
+            live--;
+            return slot;
+        }
+
+        void compact() {
+            slots.removeIf(s -> s.cancelled);
+            tombstones = 0;
+        }
+
+        void clear() {
+            slots.clear();
+            tombstones = 0;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package queue;
+
+import model.Job;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Append-only segment files holding the jobs that overflowed JobQueue's in-memory window.
+ * Jobs are written in FIFO order to the open segment; once it reaches segmentJobs records
+ * (or the reader asks for it early) it is sealed and becomes readable, oldest first.
+ *
+ * Not thread-safe: JobQueue guards the write side with its lock. Sealing only detaches the
+ * open stream, so no flush or close happens under that lock; the read-ahead thread takes
+ * newly sealed segments from drainUnclosed() and closes them outside the lock, which also
+ * releases their write buffers promptly. The only I/O left under the lock is
+ * opening a new segment file and the buffered stream's occasional write of a full 64 KB
+ * buffer (roughly every 3,000 records) into the page cache, with no fsync.
+ */
+final class SegmentSpill {
+
+    // Fixed-size record: id, durationMs, tenantId (int) + createdAtNs (long)
+    static final int RECORD_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    private static final int IO_BUFFER_BYTES = 64 * 1024;
+
+    private final Path dir;
+    private final int segmentJobs;
+    private final Deque<Segment> sealed = new ArrayDeque<>();
+    private final List<Segment> unclosed = new ArrayList<>(); // sealed, stream not yet handed off for closing
+
+    private DataOutputStream out;
+    private Path openSegment;
+    private int openCount = 0;
+    private long nextSegment = 0;
+    private IOException failure; // set once a write fails; the spill is unusable afterwards
+
+    SegmentSpill(Path dir, int segmentJobs) throws IOException {
+        if (segmentJobs <= 0) {
+            throw new IllegalArgumentException("segmentJobs must be positive: " + segmentJobs);
+        }
+        this.dir = Files.createDirectories(dir);
+        this.segmentJobs = segmentJobs;
+    }
+
+    /**
+     * Appends one record. If a write fails, a partial record may be left in the open segment,
+     * so that segment is discarded and every later append fails too.
+     *
+     * @return true if this record filled and sealed the open segment
+     */
+    boolean append(Job job) throws IOException {
+        if (failure != null) {
+            throw new IOException("spill is unusable after an earlier write failure", failure);
+        }
+        try {
+            if (out == null) {
+                openSegment = dir.resolve(String.format("segment-%08d.bin", nextSegment++));
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(openSegment), IO_BUFFER_BYTES));
+            }
+            out.writeInt(job.getId());
+            out.writeInt(job.getDurationMs());
+            out.writeInt(job.getTenantId());
+            out.writeLong(job.getCreatedAtNs());
+            if (++openCount >= segmentJobs) {
+                seal();
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            failure = e;
+            discardOpenSegment();
+            throw e;
+        }
+    }
+
+    boolean hasOpenRecords() {
+        return openCount > 0;
+    }
+
+    /** Hands the open segment to the reader. No I/O: the reader flushes and closes it. */
+    void seal() {
+        Segment segment = new Segment(openSegment, out);
+        sealed.addLast(segment);
+        unclosed.add(segment);
+        out = null;
+        openSegment = null;
+        openCount = 0;
+    }
+
+    private void discardOpenSegment() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // already failing; the file is deleted below
+            }
+        }
+        if (openSegment != null) {
+            deleteQuietly(openSegment);
+        }
+        out = null;
+        openSegment = null;
+        openCount = 0;
+    }
+
+    /** Oldest sealed segment, or null if none is ready. */
+    Segment pollSealed() {
+        return sealed.pollFirst();
+    }
+
+    /** Sealed segments whose streams the caller must close (outside the queue lock). */
+    List<Segment> drainUnclosed() {
+        if (unclosed.isEmpty()) {
+            return List.of();
+        }
+        List<Segment> drained = new ArrayList<>(unclosed);
+        unclosed.clear();
+        return drained;
+    }
+
+    /**
+     * Releases everything the spill still owns: closes sealed streams not yet handed to the
+     * reader, deletes sealed files not yet read, and drops the open segment. Segments already
+     * taken by the reader are closed and deleted by it. Later appends fail.
+     */
+    void discardAll() {
+        for (Segment segment : unclosed) {
+            segment.closeQuietly();
+        }
+        unclosed.clear();
+        for (Segment segment : sealed) {
+            deleteQuietly(segment.path);
+        }
+        sealed.clear();
+        discardOpenSegment();
+        if (failure == null) {
+            failure = new IOException("spill was discarded");
+        }
+    }
+
+    /** Flushes and closes a sealed segment if needed, reads it front to back, then deletes it. */
+    static List<Job> read(Segment sealedSegment) throws IOException {
+        Path segment = sealedSegment.path;
+        try {
+            sealedSegment.close();
+            int count = (int) (Files.size(segment) / RECORD_BYTES);
+            List<Job> jobs = new ArrayList<>(count);
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(segment), IO_BUFFER_BYTES))) {
+                for (int i = 0; i < count; i++) {
+                    int id = in.readInt();
+                    int durationMs = in.readInt();
+                    int tenantId = in.readInt();
+                    long createdAtNs = in.readLong();
+                    jobs.add(new Job(id, durationMs, tenantId, createdAtNs));
+                }
+            }
+            Files.delete(segment);
+            return jobs;
+        } catch (IOException e) {
+            // the queue fails on this error; do not leave the stream or the file behind
+            sealedSegment.closeQuietly();
+            deleteQuietly(segment);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort: nothing will read this file again
+        }
+    }
+
+    /** A sealed segment whose stream may still hold buffered records until it is closed. */
+    static final class Segment {
+        final Path path;
+        private DataOutputStream out; // null once closed, so the 64 KB write buffer can be collected
+
+        Segment(Path path, DataOutputStream out) {
+            this.path = path;
+            this.out = out;
+        }
+
+        // flushes the remaining records and frees the write buffer; idempotent
+        void close() throws IOException {
+            if (out != null) {
+                DataOutputStream stream = out;
+                out = null;
+                stream.close();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException ignored) {
+                // discarding: the file is deleted anyway
+            }
+        }
+    }
+}
@@ -3,6 +3,10 @@ package worker;
 import model.Job;
 import queue.JobQueue;
 
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
 public class Consumer implements Runnable {
 
     private final JobQueue queue;
@@ -10,8 +14,12 @@ public class Consumer implements Runnable {
     private final boolean verbose;
     private final int logEvery;
     private final boolean noSleep;
+    private final boolean trackTenants;       // per-tenant stats only matter for a multi-tenant queue
+    private final TenantWindow tenantWindow;  // optional, shared by all consumers
 
     private int processedCount = 0;
+    private UncheckedIOException failure;
+    private final Map<Integer, TenantStats> tenantStats = new HashMap<>();
 
     // Backward-compatible constructor (defaults noSleep=false)
     public Consumer(JobQueue queue, int consumerId, boolean verbose, int logEvery) {
@@ -20,11 +28,19 @@ public class Consumer implements Runnable {
 
     // New constructor for tests/benchmarks
     public Consumer(JobQueue queue, int consumerId, boolean verbose, int logEvery, boolean noSleep) {
+        this(queue, consumerId, verbose, logEvery, noSleep, null);
+    }
+
+    // Multi-tenant constructor: also reports completions to the shared fairness window
+    public Consumer(JobQueue queue, int consumerId, boolean verbose, int logEvery, boolean noSleep,
+                    TenantWindow tenantWindow) {
         this.queue = queue;
         this.consumerId = consumerId;
         this.verbose = verbose;
         this.logEvery = logEvery;
         this.noSleep = noSleep;
+        this.trackTenants = queue.isMultiTenant();
+        this.tenantWindow = tenantWindow;
     }
 
     @Override
@@ -44,12 +60,25 @@ public class Consumer implements Runnable {
 
                 processedCount++;
 
+                if (trackTenants) {
+                    long finishNs = System.nanoTime();
+                    tenantStats.computeIfAbsent(job.getTenantId(), t -> new TenantStats())
+                            .record(finishNs - job.getCreatedAtNs(), finishNs);
+                    if (tenantWindow != null) {
+                        tenantWindow.recordCompletion(job.getTenantId(), finishNs);
+                    }
+                }
+
                 if (verbose && processedCount % logEvery == 0) {
                     System.out.println("Consumer " + consumerId + " finished " + job);
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            // queue storage failed (e.g. disk spill); stop cleanly and let Main report it
+            failure = e;
+            System.err.println("Consumer " + consumerId + " stopped: " + e.getMessage());
         }
     }
 
@@ -59,6 +88,15 @@ public class Consumer implements Runnable {
     public int getConsumerId() {
         return consumerId;
     }
+
+    public Map<Integer, TenantStats> getTenantStats() {
+        return tenantStats;
+    }
+
+    // null unless the queue failed while this consumer was taking
+    public UncheckedIOException getFailure() {
+        return failure;
+    }
   
 }
 
@@ -3,6 +3,7 @@ package worker;
 import queue.JobQueue;
 import model.Job;
 
+import java.io.UncheckedIOException;
 import java.util.Random;
 
 /**
@@ -17,6 +18,8 @@ public class Producer implements Runnable {
     private final boolean verbose;
     private final int logEvery;
     private final boolean noSleep;
+    private final int tenantId;
+    private UncheckedIOException failure;
 
     public Producer(
             JobQueue queue,
@@ -26,6 +29,20 @@ public class Producer implements Runnable {
             boolean verbose,
             int logEvery,
             boolean noSleep
+    ) {
+        this(queue, producerId, jobsToProduce, seed, verbose, logEvery, noSleep, Job.DEFAULT_TENANT);
+    }
+
+    // Multi-tenant constructor: every job this producer creates belongs to tenantId
+    public Producer(
+            JobQueue queue,
+            int producerId,
+            int jobsToProduce,
+            long seed,
+            boolean verbose,
+            int logEvery,
+            boolean noSleep,
+            int tenantId
     ) {
         this.queue = queue;
         this.producerId = producerId;
@@ -34,6 +51,7 @@ public class Producer implements Runnable {
         this.verbose = verbose;
         this.logEvery = logEvery;
         this.noSleep = noSleep;
+        this.tenantId = tenantId;
     }
 
     @Override
@@ -51,7 +69,7 @@ public class Producer implements Runnable {
 
                 int jobId = producerId * 1000 + i;
 
-                Job job = new Job(jobId, durationMs);
+                Job job = new Job(jobId, durationMs, tenantId);
 
                 queue.put(job);
 
@@ -63,8 +81,15 @@ public class Producer implements Runnable {
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            // queue storage failed (e.g. disk spill); stop cleanly and let Main report it
+            failure = e;
+            System.err.println("Producer " + producerId + " stopped: " + e.getMessage());
         }
     }
-}
-
 
+    // null unless the queue failed while this producer was putting
+    public UncheckedIOException getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,43 @@
+package worker;
+
+/**
+ * Per-tenant completion stats collected by a Consumer.
+ * Not thread-safe: each Consumer owns its own instances, and Main merges them after join().
+ */
+public class TenantStats {
+
+    private int processed = 0;
+    private long totalLatencyNs = 0;
+    private long maxLatencyNs = 0;
+    private long lastFinishNs = 0;
+
+    public void record(long latencyNs, long finishNs) {
+        processed++;
+        totalLatencyNs += latencyNs;
+        maxLatencyNs = Math.max(maxLatencyNs, latencyNs);
+        lastFinishNs = Math.max(lastFinishNs, finishNs);
+    }
+
+    public void merge(TenantStats other) {
+        processed += other.processed;
+        totalLatencyNs += other.totalLatencyNs;
+        maxLatencyNs = Math.max(maxLatencyNs, other.maxLatencyNs);
+        lastFinishNs = Math.max(lastFinishNs, other.lastFinishNs);
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public double getMeanLatencyMs() {
+        return (processed > 0) ? (totalLatencyNs / (double) processed) / 1_000_000.0 : 0.0;
+    }
+
+    public double getMaxLatencyMs() {
+        return maxLatencyNs / 1_000_000.0;
+    }
+
+    public long getLastFinishNs() {
+        return lastFinishNs;
+    }
+}
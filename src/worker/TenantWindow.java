@@ -0,0 +1,43 @@
+package worker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared fairness window for the tenant report. The window closes when the first tenant
+ * completes all of its jobs; at that moment every tenant's completed count is snapshotted.
+ * Inside the window all tenants were still competing, so their rates reflect the scheduler.
+ * Thread-safe (shared by all consumers); memory is O(tenants), not O(jobs).
+ */
+public class TenantWindow {
+
+    private final Map<Integer, Integer> expectedJobs;
+    private final Map<Integer, Integer> completed = new HashMap<>();
+    private Map<Integer, Integer> countsAtEnd; // null until the window closes
+    private long endNs = 0;
+
+    public TenantWindow(Map<Integer, Integer> expectedJobs) {
+        this.expectedJobs = new HashMap<>(expectedJobs);
+    }
+
+    public synchronized void recordCompletion(int tenantId, long finishNs) {
+        int done = completed.merge(tenantId, 1, Integer::sum);
+        if (countsAtEnd == null && done == expectedJobs.getOrDefault(tenantId, -1)) {
+            countsAtEnd = new HashMap<>(completed);
+            endNs = finishNs;
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return countsAtEnd != null;
+    }
+
+    // System.nanoTime() when the first tenant finished; 0 while the window is open
+    public synchronized long getEndNs() {
+        return endNs;
+    }
+
+    public synchronized int getCompletedAtEnd(int tenantId) {
+        return (countsAtEnd == null) ? 0 : countsAtEnd.getOrDefault(tenantId, 0);
+    }
+}
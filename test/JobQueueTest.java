@@ -1,7 +1,15 @@
 import model.Job;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import queue.JobQueue;
+import worker.Consumer;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +50,221 @@ public class JobQueueTest {
         JobQueue queue = new JobQueue(1);
         assertNotNull(queue);
     }
-}
 
+    @Test
+    void multiTenant_servesTenantsByWeight() throws Exception {
+        JobQueue queue = new JobQueue(100, Map.of(1, 3, 2, 1), 100);
+
+        // tenant 1 floods the queue first; tenant 2 still gets its share every round
+        for (int i = 0; i < 12; i++) queue.put(new Job(100 + i, 0, 1));
+        for (int i = 0; i < 4; i++) queue.put(new Job(200 + i, 0, 2));
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 8; i++) order.add(queue.take().getTenantId());
+
+        assertEquals(List.of(1, 1, 1, 2, 1, 1, 1, 2), order);
+    }
+
+    @Test
+    void multiTenant_fifoWithinTenant() throws Exception {
+        JobQueue queue = new JobQueue(10, Map.of(), 10);
+        queue.put(new Job(1, 0, 7));
+        queue.put(new Job(2, 0, 7));
+        queue.put(new Job(3, 0, 7));
+
+        assertEquals(1, queue.take().getId());
+        assertEquals(2, queue.take().getId());
+        assertEquals(3, queue.take().getId());
+    }
+
+    @Test
+    void multiTenant_quotaBlocksOnlyThatTenant() throws Exception {
+        JobQueue queue = new JobQueue(10, Map.of(), 2);
+        queue.put(new Job(1, 0, 1));
+        queue.put(new Job(2, 0, 1));
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = exec.submit(() -> {
+                queue.put(new Job(3, 0, 1));
+                return null;
+            });
+
+            // other tenants are not affected by tenant 1's quota
+            queue.put(new Job(4, 0, 2));
+            assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+            assertEquals(1, queue.take().getTenantId());
+            blocked.get(2, TimeUnit.SECONDS);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancel_skipsJobAndKeepsOrder() throws Exception {
+        JobQueue queue = new JobQueue(10);
+        queue.put(new Job(1, 0));
+        queue.put(new Job(2, 0));
+        queue.put(new Job(3, 0));
+
+        assertTrue(queue.cancel(2));
+        assertFalse(queue.cancel(2), "already cancelled");
+        assertFalse(queue.cancel(99), "unknown id");
+
+        assertEquals(1, queue.take().getId());
+        assertEquals(3, queue.take().getId());
+        assertFalse(queue.cancel(3), "already taken");
+
+        queue.shutdown();
+        assertNull(queue.take());
+    }
+
+    @Test
+    void cancel_freesCapacityForBlockedProducer() throws Exception {
+        JobQueue queue = new JobQueue(1);
+        queue.put(new Job(1, 0));
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = exec.submit(() -> {
+                queue.put(new Job(2, 0));
+                return null;
+            });
+            assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+            assertTrue(queue.cancel(1));
+            blocked.get(2, TimeUnit.SECONDS);
+            assertEquals(2, queue.take().getId());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancel_massCancellationCompactsAndPreservesOrder() throws Exception {
+        JobQueue queue = new JobQueue(10_000);
+        for (int i = 0; i < 10_000; i++) queue.put(new Job(i, 0));
+
+        // cancel every job except multiples of 100
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 100 != 0) assertTrue(queue.cancel(i));
+        }
+
+        for (int i = 0; i < 10_000; i += 100) {
+            assertEquals(i, queue.take().getId());
+        }
+        queue.shutdown();
+        assertNull(queue.take());
+    }
 
+    @Test
+    void cancel_wholeTenantBatchLeavesOtherTenantsServed() throws Exception {
+        JobQueue queue = new JobQueue(100, Map.of(1, 4), 100);
+        for (int i = 0; i < 50; i++) queue.put(new Job(1000 + i, 0, 1));
+        queue.put(new Job(2000, 0, 2));
+        queue.put(new Job(2001, 0, 2));
+
+        for (int i = 0; i < 50; i++) assertTrue(queue.cancel(1000 + i));
+
+        assertEquals(2000, queue.take().getId());
+        assertEquals(2001, queue.take().getId());
+
+        // tenant 1 can queue again after its batch was withdrawn
+        queue.put(new Job(1100, 0, 1));
+        assertEquals(1100, queue.take().getId());
+    }
+
+    @Test
+    void spill_overflowGoesToDiskAndComesBackInFifoOrder(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(10, dir, 64);
+
+        // would block forever with a plain bounded queue and no consumer
+        for (int i = 0; i < 1_000; i++) queue.put(new Job(i, i % 7, 3));
+        assertEquals(990, queue.getSpilledTotal());
+        queue.shutdown();
+
+        for (int i = 0; i < 1_000; i++) {
+            Job job = queue.take();
+            assertEquals(i, job.getId());
+            assertEquals(i % 7, job.getDurationMs());
+            assertEquals(3, job.getTenantId());
+        }
+        assertNull(queue.take());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count(), "segments are deleted once read");
+        }
+    }
+
+    @Test
+    void spill_newJobsQueueBehindDiskBacklog(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(2, dir, 4);
+        for (int i = 0; i < 10; i++) queue.put(new Job(i, 0));
+
+        // draining the window must not let a new job jump ahead of the spilled ones
+        assertEquals(0, queue.take().getId());
+        assertEquals(1, queue.take().getId());
+        queue.put(new Job(10, 0));
+        queue.shutdown();
+
+        for (int i = 2; i <= 10; i++) assertEquals(i, queue.take().getId());
+        assertNull(queue.take());
+    }
+
+    @Test
+    void spill_cancelDropsJobOnDisk(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(2, dir, 4);
+        for (int i = 0; i < 8; i++) queue.put(new Job(i, 0));
+
+        assertTrue(queue.cancel(1)); // in memory
+        assertTrue(queue.cancel(5)); // on disk
+        assertFalse(queue.cancel(5), "already cancelled");
+        assertFalse(queue.cancel(42), "unknown id");
+        assertFalse(queue.cancel(8), "not put yet");
+        queue.put(new Job(8, 0));    // must not be dropped by the earlier cancel(8)
+        queue.shutdown();
+
+        List<Integer> ids = new ArrayList<>();
+        Job job;
+        while ((job = queue.take()) != null) ids.add(job.getId());
+        assertEquals(List.of(0, 2, 3, 4, 6, 7, 8), ids);
+    }
+
+    @Test
+    void spill_duplicateIdsAreNotDropped(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(2, dir, 4);
+        queue.put(new Job(100, 0));
+        queue.put(new Job(101, 0)); // window full: everything below stays on disk
+        for (int i = 0; i < 20; i++) queue.put(new Job(7, i)); // same id, told apart by duration
+
+        // cancelling a duplicated id on disk drops exactly one occurrence
+        assertTrue(queue.cancel(7));
+        queue.shutdown();
+
+        assertEquals(100, queue.take().getId());
+        assertEquals(101, queue.take().getId());
+        List<Integer> durations = new ArrayList<>();
+        Job job;
+        while ((job = queue.take()) != null) durations.add(job.getDurationMs());
+        assertEquals(19, durations.size());
+        assertEquals(1, durations.get(0)); // first occurrence read back was the cancelled one
+        assertEquals(19, durations.get(18));
+    }
+
+    @Test
+    void spill_writeFailureFailsQueueWithoutKillingConsumer(@TempDir Path dir) throws Exception {
+        Path spillDir = dir.resolve("spill");
+        JobQueue queue = new JobQueue(1, spillDir, 4);
+        Files.delete(spillDir); // next segment cannot be created
+
+        queue.put(new Job(0, 0)); // fits in memory
+        assertThrows(UncheckedIOException.class, () -> queue.put(new Job(1, 0)));
+        assertThrows(UncheckedIOException.class, () -> queue.put(new Job(2, 0)), "spill stays failed");
+
+        // the in-memory window still drains, then the consumer stops instead of dying
+        Consumer consumer = new Consumer(queue, 1, false, 50, true);
+        consumer.run();
+        assertEquals(1, consumer.getProcessedCount());
+        assertNotNull(consumer.getFailure());
+    }
+}
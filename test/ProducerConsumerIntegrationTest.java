@@ -1,8 +1,11 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +60,94 @@ public class ProducerConsumerIntegrationTest {
         assertEquals(producers * jobsPerProducer, totalProcessed, "All jobs should be processed");
     }
 
+    @Test
+    void endToEnd_multiTenant_quotaContention_noLostWakeups() throws Exception {
+        final int trials = 5;
+        final int tenants = 5;
+        final int producers = 16;
+        final int consumers = 3;
+        final int jobsPerProducer = 500;
+
+        for (int trial = 1; trial <= trials; trial++) {
+            // tight capacity and quota so producers constantly block on both
+            JobQueue queue = new JobQueue(8, Map.of(1, 3, 2, 2), 2);
+
+            List<Consumer> consumerWorkers = new ArrayList<>();
+            List<Thread> consumerThreads = new ArrayList<>();
+            for (int i = 0; i < consumers; i++) {
+                Consumer c = new Consumer(queue, i + 1, false, 50, true);
+                consumerWorkers.add(c);
+                Thread t = new Thread(c, "Trial-" + trial + "-Consumer-" + (i + 1));
+                consumerThreads.add(t);
+                t.start();
+            }
+
+            List<Thread> producerThreads = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                int tenantId = (i % tenants) + 1;
+                Producer p = new Producer(queue, i + 1, jobsPerProducer, i + 11, false, 50, true, tenantId);
+                Thread t = new Thread(p, "Trial-" + trial + "-Producer-" + (i + 1));
+                producerThreads.add(t);
+                t.start();
+            }
+
+            for (Thread t : producerThreads) {
+                t.join(10_000);
+                if (t.isAlive()) {
+                    queue.shutdown(); // release the other threads before failing
+                    fail(t.getName() + " is stuck (lost wakeup)");
+                }
+            }
+            queue.shutdown();
+            for (Thread t : consumerThreads) t.join();
+
+            int totalProcessed = consumerWorkers.stream()
+                    .mapToInt(Consumer::getProcessedCount)
+                    .sum();
+
+            assertEquals(producers * jobsPerProducer, totalProcessed, "Trial " + trial + ": all jobs should be processed");
+        }
+    }
+
+    @Test
+    void endToEnd_spillMode_allJobsProcessed(@TempDir Path spillDir) throws Exception {
+        int producers = 4;
+        int consumers = 2;
+        int jobsPerProducer = 500;
+
+        // tiny in-memory window so most jobs go through segment files
+        JobQueue queue = new JobQueue(8, spillDir, 32);
+
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            Producer p = new Producer(queue, i + 1, jobsPerProducer, i + 7, false, 50, true);
+            Thread t = new Thread(p, "Producer-" + (i + 1));
+            producerThreads.add(t);
+            t.start();
+        }
+        for (Thread t : producerThreads) t.join();
+
+        List<Consumer> consumerWorkers = new ArrayList<>();
+        List<Thread> consumerThreads = new ArrayList<>();
+        for (int i = 0; i < consumers; i++) {
+            Consumer c = new Consumer(queue, i + 1, false, 50, true);
+            consumerWorkers.add(c);
+            Thread t = new Thread(c, "Consumer-" + (i + 1));
+            consumerThreads.add(t);
+            t.start();
+        }
+
+        queue.shutdown();
+        for (Thread t : consumerThreads) t.join();
+
+        int totalProcessed = consumerWorkers.stream()
+                .mapToInt(Consumer::getProcessedCount)
+                .sum();
+
+        assertEquals(producers * jobsPerProducer, totalProcessed, "All jobs should be processed");
+        assertTrue(queue.getSpilledTotal() > 0, "Producers should have overflowed to disk");
+    }
+
     /**
      * Runs 5 trials and asserts on WORST-CASE fairness metrics:
      * - min Jain
@@ -0,0 +1,92 @@
+package queue;
+
+import model.Job;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hybrid-mode tests that need JobQueue's package-private read-ahead hook.
+ */
+public class JobQueueSpillTest {
+
+    @Test
+    void cancellingWindowWakesReadAhead(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(4, dir, 100);
+        for (int i = 0; i < 7; i++) queue.put(new Job(i, 0));
+        awaitParked(queue.readAheadThread());
+
+        // emptying the window by cancel (not take) must still pull the partial segment from disk
+        for (int i = 0; i < 4; i++) assertTrue(queue.cancel(i));
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<Job> next = exec.submit(queue::take);
+            assertEquals(4, next.get(2, TimeUnit.SECONDS).getId());
+        } finally {
+            exec.shutdownNow();
+            queue.close();
+        }
+    }
+
+    @Test
+    void close_discardsDiskBacklogAndStopsReadAhead(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(2, dir, 4);
+        for (int i = 0; i < 20; i++) queue.put(new Job(i, 0));
+        Thread reader = queue.readAheadThread();
+        assertNotNull(reader);
+
+        queue.close();
+
+        assertFalse(reader.isAlive());
+        assertEquals(0, fileCount(dir), "segment files are deleted");
+        // the in-memory window is still delivered, the disk backlog is not
+        assertEquals(0, queue.take().getId());
+        assertEquals(1, queue.take().getId());
+        assertNull(queue.take());
+    }
+
+    @Test
+    void writeFailure_deletesPendingSegments(@TempDir Path dir) throws Exception {
+        JobQueue queue = new JobQueue(1, dir, 2);
+        // a directory where the second segment file should go makes that segment fail to open
+        Files.createDirectory(dir.resolve("segment-00000001.bin"));
+
+        queue.put(new Job(0, 0)); // in memory
+        queue.put(new Job(1, 0)); // segment 0 ...
+        queue.put(new Job(2, 0)); // ... sealed
+        assertThrows(UncheckedIOException.class, () -> queue.put(new Job(3, 0)));
+
+        queue.readAheadThread().join(2_000);
+        assertFalse(queue.readAheadThread().isAlive(), "read-ahead exits after the failure");
+        assertEquals(0, fileCount(dir), "no segment outlives the failure");
+
+        assertEquals(0, queue.take().getId());
+        assertThrows(UncheckedIOException.class, queue::take);
+    }
+
+    private static long fileCount(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    // Waits until this queue's read-ahead thread has looked at the full window and gone back to sleep.
+    private static void awaitParked(Thread reader) throws InterruptedException {
+        assertNotNull(reader);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (reader.getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) fail("read-ahead thread never parked");
+            Thread.sleep(10);
+        }
+    }
+}